@@ -10,6 +10,10 @@ public class AirlineGraph {
     // Key: Source city (String)
     // Value: List of flights departing from the source city
     private final Map<String, List<Flight>> adjacencyList = new HashMap<>();
+    // Array form of the graph used for routing, built when first needed and dropped whenever a flight is added
+    private Adjacency adjacency;
+    // Weights for the named weight functions (COST/DURATION), kept until a flight is added
+    private final Map<WeightFunction, double[]> namedWeights = new HashMap<>();
 
     /**
      * Adds a new flight to the graph
@@ -33,6 +37,47 @@ public class AirlineGraph {
         // If the source city doesn't exist in the map yet, create a new list for it
         // Uses computeIfAbsent, a method of Map class in Java introduced in Java 8+
         adjacencyList.computeIfAbsent(source, _ -> new ArrayList<>()).add(flight);
+        flightsChanged();
+    }
+
+    /**
+     * Called after a flight is added so anything built from the old flights is rebuilt
+     */
+    protected synchronized void flightsChanged() {
+        adjacency = null;
+        namedWeights.clear();
+    }
+
+    /**
+     * Gets the graph in the form used for routing, building it from getCities and getFlightsFrom if the flights
+     * changed. Graphs that can already be routed over by number override this
+     *
+     * @return Adjacency view of the current flights
+     */
+    public synchronized Adjacency getAdjacency() {
+        if (adjacency == null) {
+            adjacency = new FlightArrays(this);
+        }
+        return adjacency;
+    }
+
+    /**
+     * Gets the weight of every flight for a weight function, indexed by flight number (see Adjacency)
+     * Weights for COST and DURATION are kept until a flight is added; weights for any other function are only
+     * used by the current query, so blended or custom functions do not fill up the memory
+     *
+     * @param weightFunction Decides the weight of each flight
+     * @return The weight of each flight
+     */
+    public double[] getWeights(WeightFunction weightFunction) {
+        if (weightFunction == WeightFunction.COST || weightFunction == WeightFunction.DURATION) {
+            return getNamedWeights(weightFunction);
+        }
+        return getAdjacency().weights(weightFunction);
+    }
+
+    private synchronized double[] getNamedWeights(WeightFunction weightFunction) {
+        return namedWeights.computeIfAbsent(weightFunction, getAdjacency()::weights);
     }
 
     /**
@@ -70,4 +115,101 @@ public class AirlineGraph {
         // Return the set of all cities in the network
         return cities;
     }
+
+    /**
+     * The graph as seen by the routing algorithms: cities and flights are numbered, and the flights leaving a city
+     * are visited with firstFlightFrom and nextFlight, so routing needs no maps or Flight objects
+     */
+    public interface Adjacency {
+        // Returned by cityId for cities that are not in the network
+        int NO_CITY = -1;
+        // Marks the end of a city's flights
+        int NO_FLIGHT = -1;
+
+        int cityCount();
+        int flightCount();
+        int cityId(String city);
+        int firstFlightFrom(int cityId);
+        int nextFlight(int flight);
+        int sourceOf(int flight);
+        int destinationOf(int flight);
+        double costOf(int flight);
+        int durationOf(int flight);
+        Flight flightAt(int flight);
+
+        /**
+         * Calculates the weight of every flight for a weight function
+         *
+         * @param weightFunction Decides the weight of each flight
+         * @return The weight of each flight, indexed by flight number
+         * @throws IllegalArgumentException if the function gives a flight a weight that is not positive and finite
+         */
+        default double[] weights(WeightFunction weightFunction) {
+            double[] result = new double[flightCount()];
+            for (int flight = 0; flight < result.length; flight++) {
+                double weight = weightFunction.weight(costOf(flight), durationOf(flight));
+                // Routing relies on positive weights, NaN fails every comparison so it has to pass weight > 0
+                if (!(weight > 0) || Double.isInfinite(weight)) {
+                    throw new IllegalArgumentException("Weight must be a positive finite number");
+                }
+                result[flight] = weight;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Helper class that holds the graph as arrays instead of a map of lists
+     * Flights are numbered city by city, in the order they were added, so the flights of a city have consecutive
+     * numbers
+     */
+    private static class FlightArrays implements Adjacency {
+        private final Map<String, Integer> cityIds = new HashMap<>(); // City name to city id
+        private final int[] firstFlight; // First flight of each city, NO_FLIGHT if it has none
+        private final int[] nextFlight; // Next flight from the same city, NO_FLIGHT after the last one
+        private final int[] sources; // Source city id of each flight
+        private final int[] destinations; // Destination city id of each flight
+        private final Flight[] flights; // Each flight, to build the path once a route is found
+
+        FlightArrays(AirlineGraph graph) {
+            // Number the cities
+            String[] cityNames = graph.getCities().toArray(new String[0]);
+            for (int i = 0; i < cityNames.length; i++) {
+                cityIds.put(cityNames[i], i);
+            }
+
+            // Copy the flights city by city, keeping the order they were added in
+            List<Flight> allFlights = new ArrayList<>();
+            List<Integer> cityEnds = new ArrayList<>();
+            firstFlight = new int[cityNames.length];
+            for (int i = 0; i < cityNames.length; i++) {
+                List<Flight> cityFlights = graph.getFlightsFrom(cityNames[i]);
+                firstFlight[i] = cityFlights.isEmpty() ? NO_FLIGHT : allFlights.size();
+                allFlights.addAll(cityFlights);
+                cityEnds.add(allFlights.size());
+            }
+
+            flights = allFlights.toArray(new Flight[0]);
+            nextFlight = new int[flights.length];
+            sources = new int[flights.length];
+            destinations = new int[flights.length];
+            for (int f = 0; f < flights.length; f++) {
+                sources[f] = cityIds.get(flights[f].getSource());
+                destinations[f] = cityIds.get(flights[f].getDestination());
+                // The last flight of a city has no next flight
+                nextFlight[f] = f + 1 < cityEnds.get(sources[f]) ? f + 1 : NO_FLIGHT;
+            }
+        }
+
+        public int cityCount() { return firstFlight.length; }
+        public int flightCount() { return flights.length; }
+        public int cityId(String city) { return cityIds.getOrDefault(city, NO_CITY); }
+        public int firstFlightFrom(int cityId) { return firstFlight[cityId]; }
+        public int nextFlight(int flight) { return nextFlight[flight]; }
+        public int sourceOf(int flight) { return sources[flight]; }
+        public int destinationOf(int flight) { return destinations[flight]; }
+        public double costOf(int flight) { return flights[flight].getCost(); }
+        public int durationOf(int flight) { return flights[flight].getDuration(); }
+        public Flight flightAt(int flight) { return flights[flight]; }
+    }
 }
@@ -0,0 +1,174 @@
+import java.util.*;
+
+/**
+ * ConstrainedRouting class for the Airline Reservation System
+ * Finds the best route between two cities that uses at most a given number of flights (legs),
+ * and optionally stays under a maximum total duration
+ *
+ * Routes are built one leg at a time: bucket k holds the partial routes (labels) that use exactly k flights.
+ * A label is dropped when another label for the same city is at least as good in every way that matters
+ * (weight, and duration when it is limited) while using no more flights (dominance pruning), or when it is already
+ * worse than the best complete route found so far. The leg limit therefore stops the search early instead of
+ * filtering long routes out afterwards.
+ */
+public class ConstrainedRouting {
+
+    // Passed as maxDuration when the total duration is not limited
+    public static final int NO_DURATION_LIMIT = Integer.MAX_VALUE;
+
+    /**
+     * Finds the best route that uses at most maxLegs flights
+     *
+     * @param graph A graph that is an instance of AirlineGraph.java, includes cities and the connecting flights
+     * @param start The name of the source city
+     * @param end The name of the end city
+     * @param criteria The criteria selected for weights (cost/duration)
+     * @param maxLegs The maximum number of flights on the route
+     * @return An object PathResult with the flights on the route and its total weight,
+     *         flights is null if no route within the limit exists
+     */
+    public static Dijkstra.PathResult findShortestPath(AirlineGraph graph, String start, String end,
+                                                       String criteria, int maxLegs) {
+        return findShortestPath(graph, start, end, criteria, maxLegs, NO_DURATION_LIMIT);
+    }
+
+    /**
+     * Finds the best route that uses at most maxLegs flights and takes at most maxDuration minutes in total
+     *
+     * @param graph A graph that is an instance of AirlineGraph.java, includes cities and the connecting flights
+     * @param start The name of the source city
+     * @param end The name of the end city
+     * @param criteria The criteria selected for weights (cost/duration)
+     * @param maxLegs The maximum number of flights on the route
+     * @param maxDuration The maximum total duration in minutes, or NO_DURATION_LIMIT
+     * @return An object PathResult with the flights on the route and its total weight,
+     *         flights is null if no route within the limits exists
+     */
+    public static Dijkstra.PathResult findShortestPath(AirlineGraph graph, String start, String end,
+                                                       String criteria, int maxLegs, int maxDuration) {
+        return findShortestPath(graph, start, end, WeightFunction.of(criteria), maxLegs, maxDuration);
+    }
+
+    /**
+     * Finds the best route by any weight function that uses at most maxLegs flights and takes at most
+     * maxDuration minutes in total
+     *
+     * @param graph A graph that is an instance of AirlineGraph.java, includes cities and the connecting flights
+     * @param start The name of the source city
+     * @param end The name of the end city
+     * @param weightFunction Decides the weight of each flight (see WeightFunction)
+     * @param maxLegs The maximum number of flights on the route
+     * @param maxDuration The maximum total duration in minutes, or NO_DURATION_LIMIT
+     * @return An object PathResult with the flights on the route and its total weight,
+     *         flights is null if no route within the limits exists
+     */
+    public static Dijkstra.PathResult findShortestPath(AirlineGraph graph, String start, String end,
+                                                       WeightFunction weightFunction, int maxLegs, int maxDuration) {
+        // The graph with numbered cities and flights, the same view Dijkstra uses
+        AirlineGraph.Adjacency adjacency = graph.getAdjacency();
+        int startId = adjacency.cityId(start);
+        int endId = adjacency.cityId(end);
+        // Same as Dijkstra, a route from a city to itself or with an unknown city is not a route
+        if (startId == AirlineGraph.Adjacency.NO_CITY || endId == AirlineGraph.Adjacency.NO_CITY
+                || startId == endId) {
+            return new Dijkstra.PathResult(null, 0.0);
+        }
+
+        // Weight and duration of every flight, looked up once rather than for every label
+        double[] weights = graph.getWeights(weightFunction);
+        // Duration only matters when it is limited, otherwise it is never looked up and the lower weight always wins
+        boolean durationLimited = maxDuration != NO_DURATION_LIMIT;
+        double[] durations = durationLimited ? graph.getWeights(WeightFunction.DURATION) : null;
+
+        // Labels that are not dominated so far for each city, from any number of legs up to the current one
+        List<List<Label>> labelsByCity = new ArrayList<>();
+        for (int city = 0; city < adjacency.cityCount(); city++) {
+            labelsByCity.add(new ArrayList<>());
+        }
+        // Labels that use exactly the current number of legs, expanded to build the next bucket
+        List<Label> bucket = new ArrayList<>();
+        Label startLabel = new Label(startId, 0.0, 0.0, 0, AirlineGraph.Adjacency.NO_FLIGHT, null);
+        bucket.add(startLabel);
+        labelsByCity.get(startId).add(startLabel);
+
+        Label best = null; // Best complete route found so far
+        for (int legs = 1; legs <= maxLegs && !bucket.isEmpty(); legs++) {
+            List<Label> nextBucket = new ArrayList<>();
+            for (Label label : bucket) {
+                // Skip labels that were dominated after they were added to the bucket
+                if (label.dominated) continue;
+
+                for (int flight = adjacency.firstFlightFrom(label.city); flight != AirlineGraph.Adjacency.NO_FLIGHT;
+                     flight = adjacency.nextFlight(flight)) {
+                    double weight = label.weight + weights[flight];
+                    // Without a limit every label keeps a duration of 0, so it never decides pruning or dominance
+                    double duration = durationLimited ? label.duration + durations[flight] : 0.0;
+                    // Weights are positive, so a route that is already too long or too heavy only gets worse
+                    if (duration > maxDuration) continue;
+                    if (best != null && weight >= best.weight) continue;
+
+                    Label candidate = new Label(adjacency.destinationOf(flight), weight, duration, legs, flight, label);
+                    List<Label> cityLabels = labelsByCity.get(candidate.city);
+                    if (isDominated(candidate, cityLabels, durationLimited)) continue;
+
+                    // The new label replaces every label it dominates for pruning. Labels with fewer legs can still
+                    // reach cities the new one cannot within the limit, so only same-leg labels stop being expanded
+                    cityLabels.removeIf(other -> {
+                        if (!dominates(candidate, other, durationLimited)) return false;
+                        if (other.legs == candidate.legs) other.dominated = true;
+                        return true;
+                    });
+                    cityLabels.add(candidate);
+
+                    // Reaching the end city completes a route, it is not expanded any further
+                    if (candidate.city == endId) {
+                        best = candidate;
+                    } else {
+                        nextBucket.add(candidate);
+                    }
+                }
+            }
+            bucket = nextBucket;
+        }
+
+        if (best == null) return new Dijkstra.PathResult(null, 0.0);
+        // Rebuild the route by following the labels back to the start
+        List<Flight> path = new ArrayList<>();
+        for (Label label = best; label.flight != AirlineGraph.Adjacency.NO_FLIGHT; label = label.previous) {
+            path.addFirst(adjacency.flightAt(label.flight));
+        }
+        return new Dijkstra.PathResult(path, best.weight);
+    }
+
+    /**
+     * Helper method that checks whether any existing label is at least as good as the candidate
+     */
+    private static boolean isDominated(Label candidate, List<Label> labels, boolean durationLimited) {
+        for (Label label : labels) {
+            if (dominates(label, candidate, durationLimited)) return true;
+        }
+        return false;
+    }
+
+    private static boolean dominates(Label label, Label other, boolean durationLimited) {
+        return label.weight <= other.weight && (!durationLimited || label.duration <= other.duration);
+    }
+
+    /**
+     * Helper class for a partial route: the city it ends at, its totals and how it got there
+     */
+    static class Label {
+        int city; // Id of the city the partial route ends at
+        double weight; // Sum of the weights of the flights so far
+        double duration; // Sum of the durations of the flights so far, 0 when the duration is not limited
+        int legs; // Number of flights so far
+        int flight; // Number of the last flight taken (see AirlineGraph.Adjacency), NO_FLIGHT for the start city
+        Label previous; // Partial route before the last flight
+        boolean dominated; // Set once a better label for the same city has been found
+        // Constructors to build a Label instance
+        Label(int city, double weight, double duration, int legs, int flight, Label previous) {
+            this.city = city; this.weight = weight; this.duration = duration; this.legs = legs;
+            this.flight = flight; this.previous = previous;
+        }
+    }
+}
@@ -6,6 +6,20 @@ import java.util.*;
  */
 public class Dijkstra {
 
+    /**
+     * Finds the shortest path from a start city to an end city using one of the menu criteria
+     *
+     * @param graph A graph that is an instance of AirlineGraph.java, includes cities and the connecting flights
+     * @param start The name of the source city
+     * @param end The name of the end city
+     * @param criteria The criteria selected for weights (cost/duration)
+     * @return An object PathResult that holds a list of flights needed to be taken and the sum of all the weights
+     *         in the path
+     */
+    public static PathResult findShortestPath(AirlineGraph graph, String start, String end, String criteria) {
+        return findShortestPath(graph, start, end, WeightFunction.of(criteria));
+    }
+
     /** This is the main algorithm
      * The main method for finding the shortest path from a start city to an end city
      * Uses Dijkstra's algorithm to find the path with the least weight
@@ -13,59 +27,63 @@ public class Dijkstra {
      * @param graph A graph that is an instance of AirlineGraph.java, includes cities and the connecting flights
      * @param start The name of the source city
      * @param end The name of the end city
-     * @param criteria The criteria selected for weights (cost/duration)
+     * @param weightFunction Decides the weight of each flight (see WeightFunction)
      * @return An object PathResult that holds a list of flights needed to be taken (from reconstuctPath)
      *         and the sum of all the weights in the path
     */
-    public static PathResult findShortestPath(AirlineGraph graph, String start, String end, String criteria) {
-        // Tracks the shortest known distance from the start city to each city (initialized later with inf distance
-        // for all cities except start, which has 0)
-        Map<String, Double> distances = new HashMap<>();
-        // Used later on for path reconstruction; holds the optimal path to any already processed city
-        Map<String, Flight> previousFlights = new HashMap<>();
+    public static PathResult findShortestPath(AirlineGraph graph, String start, String end,
+                                              WeightFunction weightFunction) {
+        // The graph with numbered cities and flights, see AirlineGraph.Adjacency
+        AirlineGraph.Adjacency adjacency = graph.getAdjacency();
+        int startId = adjacency.cityId(start);
+        int endId = adjacency.cityId(end);
+        // A city that is not in the network cannot be part of a path
+        if (startId == AirlineGraph.Adjacency.NO_CITY || endId == AirlineGraph.Adjacency.NO_CITY) {
+            return new PathResult(null, 0.0);
+        }
+
+        // Weight of every flight, calculated before the search rather than once per relaxation
+        double[] weights = graph.getWeights(weightFunction);
+
+        // Tracks the shortest known distance from the start city to each city (inf distance for all cities except
+        // start, which has 0)
+        double[] distances = new double[adjacency.cityCount()];
+        Arrays.fill(distances, Double.MAX_VALUE); // MAX_VALUE is a large number, might as well be infinite
+        // Used later on for path reconstruction; holds the flight number of the optimal path to each city
+        int[] previousFlights = new int[adjacency.cityCount()];
+        Arrays.fill(previousFlights, AirlineGraph.Adjacency.NO_FLIGHT);
         // A priority queue for always processing the city with the smallest known distance first, the most important
         // part of the method. Using a priority queue is an optimization over a standard array. Cities that were once
         // a part of the pq will be popped once they have been processed, doubling as a visited flag.
         PriorityQueue<Node> pq = new PriorityQueue<>(Comparator.comparingDouble(n -> n.distance));
 
-        // Initialize distances; all cities that are not starting have inf distance; start city has 0 distance
-        for (String city : graph.getCities()) {
-            distances.put(city, Double.MAX_VALUE); // MAX_VALUE is a large number, might as well be infinite
-        }
-        distances.put(start, 0.0); // Start city has 0 distance
-        pq.add(new Node(start, 0.0)); // Enqueue start city into the priority queue to start
+        distances[startId] = 0.0; // Start city has 0 distance
+        pq.add(new Node(startId, 0.0)); // Enqueue start city into the priority queue to start
 
         // Priority queue pq drives this algorithm, always expanding the city with the shortest distance first (greedy)
         while (!pq.isEmpty()) {
             Node current = pq.poll(); // Gets the current city from pq and removes it from the priority queue
-            String currentCity = current.city;
+            int currentCity = current.city;
             // Optimizations:
             // If current city is the end city (the city we wanted to reach) we can break out of the algo
-            if (currentCity.equals(end)) break;
+            if (currentCity == endId) break;
             // If a city has a longer (less optimal path) it is ignored and the loop is continued to the next iteration
-            if (current.distance > distances.get(currentCity)) continue;
+            if (current.distance > distances[currentCity]) continue;
 
             // Edge relaxation: if going to a node V from a source node is easier through another node U than directly
             // from the source node to V, update the pathing to go through node U
-            // This for loop iterates through all the flights originating from the current city
-            for (Flight flight : graph.getFlightsFrom(currentCity)) {
-                // Gets the destination city of the flight we are interested in for this iteration
-                String neighbour = flight.getDestination();
-
-                //Decides the weight of the edges based on cost or duration (User selected)
-                double weight;
-                if(criteria.equals("cost")){
-                    weight = flight.getCost();
-                }else{
-                    weight = flight.getDuration();
-                }
+            // This for loop iterates through all the flights originating from the current city; the weight is read
+            // from the array so there is no check of the criteria here
+            for (int flight = adjacency.firstFlightFrom(currentCity); flight != AirlineGraph.Adjacency.NO_FLIGHT;
+                 flight = adjacency.nextFlight(flight)) {
+                int neighbour = adjacency.destinationOf(flight);
                 // Creates the new weighted distance of the edge
-                double newDist = current.distance + weight;
+                double newDist = current.distance + weights[flight];
 
                 // If a new, shorter distance is found, update path information
-                if (newDist < distances.get(neighbour)) {
-                    distances.put(neighbour, newDist); // Update shortest distance
-                    previousFlights.put(neighbour, flight); // Track the flight used to reach this city
+                if (newDist < distances[neighbour]) {
+                    distances[neighbour] = newDist; // Update shortest distance
+                    previousFlights[neighbour] = flight; // Track the flight used to reach this city
                     pq.add(new Node(neighbour, newDist)); // Add the neighbour to the priority queue
                 }
             }
@@ -73,10 +91,10 @@ public class Dijkstra {
 
         // Calls reconstruct path for building a list of flights that get from start to end cities
         // Returns a pathing for the shortest path if there is a potential path
-        List<Flight> path = reconstructPath(previousFlights, start, end);
+        List<Flight> path = reconstructPath(adjacency, previousFlights, endId);
         double total;
         if(path != null){
-            total = distances.get(end);
+            total = distances[endId];
         }else{
             total = 0.0; // Return 0 if the path is empty (The distance is 0)
         }
@@ -90,20 +108,19 @@ public class Dijkstra {
      *
      * @return in order List of flights needed to be taken to get from start to end cities
      */
-    private static List<Flight> reconstructPath(Map<String, Flight> previousFlights, String start, String end) {
+    private static List<Flight> reconstructPath(AirlineGraph.Adjacency adjacency, int[] previousFlights, int end) {
         List<Flight> path = new ArrayList<>(); // List for Flights, stores the flights needed to reach the end city
-        String currentCity = end; // Stores the first city needed to reconstruct the path end to start
-        // Loops through all cities in previousFlights
-        while (previousFlights.containsKey(currentCity)) {
-
-            Flight flight = previousFlights.get(currentCity); // Get the flight object from previousFlights
-            path.addFirst(flight); // Add the flight obtained to the list of path
+        int currentCity = end; // Stores the first city needed to reconstruct the path end to start
+        // Loops through the cities on the path until the start city, which has no previous flight
+        while (previousFlights[currentCity] != AirlineGraph.Adjacency.NO_FLIGHT) {
+            int flight = previousFlights[currentCity]; // Get the flight used to reach the city
+            path.addFirst(adjacency.flightAt(flight)); // Add the flight obtained to the list of path
             // Get the next starting city using the current city; set current city to next city
-            currentCity = flight.getSource();
+            currentCity = adjacency.sourceOf(flight);
         }
 
         // If path is empty (no path found) return null; else return the list of the cities on the path.
-        if (path.isEmpty() || !path.getFirst().getSource().equals(start)){
+        if (path.isEmpty()){
             return null;
         }else {
             return path;
@@ -115,10 +132,10 @@ public class Dijkstra {
       * represents a city (just a convenient object format) and its distance from the original starting city
       */
     static class Node {
-        String city; //Stores the city name
+        int city; //Stores the city id
         double distance; // Distance stores the currently known shortest distance from the start city
         // Constructors to build a Node instance
-        Node(String city, double distance) { this.city = city; this.distance = distance; }
+        Node(int city, double distance) { this.city = city; this.distance = distance; }
     }
 
     /**
@@ -20,7 +20,19 @@ public class Flight {
         this.waitingQueue = new PriorityQueue<>(Comparator.comparing(BookingRequest::getBookingTime));
     }
 
-    public void bookSeat(BookingRequest request) { // Books a seat
+    /**
+     * Constructor for flyweight subclasses that keep their flight data somewhere else (see OffHeapAirlineGraph)
+     * Such subclasses override the getters and booking methods, so no fields or waiting queue are created here
+     */
+    protected Flight() {
+        this.source = null;
+        this.destination = null;
+        this.cost = 0;
+        this.duration = 0;
+        this.waitingQueue = null;
+    }
+
+    public synchronized void bookSeat(BookingRequest request) { // Books a seat, safe to call from many clients at once
         waitingQueue.add(request);
     }
 
@@ -1,3 +1,4 @@
+import java.io.*;
 import java.util.*;
 
 /**
@@ -6,14 +7,29 @@ import java.util.*;
  */
 public class Main {
     // Core system components
-    private final static AirlineGraph graph = new AirlineGraph();  // Graph representing flight network
+    private static AirlineGraph graph = new AirlineGraph();  // Graph representing flight network
     private final static Scanner scanner = new Scanner(System.in);  // For user input
     private static Dijkstra.PathResult currentRoute;  // Stores the currently selected route
 
     /**
      * Main method that displays the menu and handles user choices
+     * Can also run without the menu:
+     *   --batch [file]  reads QueryServer requests from the file (or stdin) and prints the responses
+     *   --serve port    answers QueryServer requests on a loopback socket
+     * Starting with --offheap (e.g. --offheap --serve 9000) stores the flights in an OffHeapAirlineGraph
      */
     public static void main(String[] args) {
+        // Select the off-heap graph and drop the option from the remaining arguments
+        if (args.length > 0 && args[0].equals("--offheap")) {
+            graph = new OffHeapAirlineGraph();
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        // Headless modes, see QueryServer for the request format
+        if (args.length > 0) {
+            runHeadless(args);
+            return;
+        }
 
         while (true) {
             // Display main menu options
@@ -49,6 +65,58 @@ public class Main {
         }
     }
 
+    /**
+     * Runs the system without the menu, driven by QueryServer requests
+     *
+     * @param args The command line arguments, starting with --batch or --serve
+     */
+    private static void runHeadless(String[] args) {
+        QueryServer server = new QueryServer(graph);
+        switch (args[0]) {
+            case "--batch":
+                // Read from the file if one is given, otherwise from stdin
+                try (BufferedReader in = new BufferedReader(args.length > 1 ? new FileReader(args[1])
+                        : new InputStreamReader(System.in))) {
+                    Writer out = new OutputStreamWriter(System.out);
+                    server.process(in, out);
+                } catch (FileNotFoundException e) {
+                    System.out.println("Cannot open batch file " + args[1]);
+                } catch (IOException e) {
+                    System.out.println("Error reading requests: " + e.getMessage());
+                }
+                break;
+            case "--serve":
+                // Validate the port before opening the socket
+                int port = args.length > 1 ? parsePort(args[1]) : -1;
+                if (port == -1) {
+                    System.out.println("Usage: --serve port (0-65535)");
+                    return;
+                }
+                try {
+                    server.serve(port);
+                } catch (IOException e) {
+                    System.out.println("Cannot serve on port " + port + ": " + e.getMessage());
+                }
+                break;
+            default:
+                System.out.println("Unknown option " + args[0] + ", use [--offheap] --batch [file] or --serve port");
+        }
+    }
+
+    /**
+     * Helper method for reading a port number from the command line
+     *
+     * @return The port, or -1 if it is not a number from 0 to 65535
+     */
+    private static int parsePort(String text) {
+        try {
+            int port = Integer.parseInt(text);
+            return port >= 0 && port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /**
      * Handles adding a new flight to the airline network
      * Gets flight details from user and adds to the graph
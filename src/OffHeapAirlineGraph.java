@@ -0,0 +1,224 @@
+import java.lang.foreign.*;
+import java.util.*;
+
+/**
+ * OffHeapAirlineGraph class for the Airline Reservation System
+ * An alternative AirlineGraph that keeps its flights outside the Java heap using the Foreign Memory API
+ * Every flight is a fixed size record in a MemorySegment instead of a Flight object, so large networks
+ * do not fill the heap or slow down garbage collection
+ * Cities are stored once and referred to by an int id; the flights leaving each city form a linked list of records
+ * The graph is its own Adjacency, so routing reads the records directly
+ */
+public class OffHeapAirlineGraph extends AirlineGraph implements AirlineGraph.Adjacency {
+    // Layout of one flight record (24 bytes): ids of both cities, the next record from the same city, and the weights
+    private static final StructLayout FLIGHT_RECORD = MemoryLayout.structLayout(
+            ValueLayout.JAVA_INT.withName("source"),
+            ValueLayout.JAVA_INT.withName("destination"),
+            ValueLayout.JAVA_INT.withName("next"),
+            ValueLayout.JAVA_INT.withName("duration"),
+            ValueLayout.JAVA_DOUBLE.withName("cost"));
+    private static final long RECORD_SIZE = FLIGHT_RECORD.byteSize();
+    private static final long SOURCE_OFFSET = offsetOf("source");
+    private static final long DESTINATION_OFFSET = offsetOf("destination");
+    private static final long NEXT_OFFSET = offsetOf("next");
+    private static final long DURATION_OFFSET = offsetOf("duration");
+    private static final long COST_OFFSET = offsetOf("cost");
+
+    // Flight records, doubled in size whenever it is full
+    private MemorySegment records = allocateRecords(16);
+    private int flightCount = 0;
+
+    // City names and their ids, the id is the position in cityNames
+    private final Map<String, Integer> cityIds = new HashMap<>();
+    private final List<String> cityNames = new ArrayList<>();
+    // First and last flight record leaving each city (indexed by city id)
+    private int[] firstFlight = new int[16];
+    private int[] lastFlight = new int[16];
+
+    // Bookings are rare compared to flights, so waiting queues are only created for flights that get booked
+    private final Map<Integer, PriorityQueue<BookingRequest>> waitingQueues = new HashMap<>();
+
+    /**
+     * Adds a new flight to the graph as an off-heap record
+     *
+     * @param source The departure city
+     * @param destination The arrival city
+     * @param cost The flight cost in dollars
+     * @param duration The flight duration in minutes
+     */
+    @Override
+    public void addFlight(String source, String destination, double cost, int duration) {
+        // Validate that cost and duration are positive values
+        if(cost <= 0 || duration <= 0){
+            System.out.println("Zero or negative cost or duration, flight cannot be added");
+            return;
+        }
+
+        int sourceId = cityId(source, true);
+        int destinationId = cityId(destination, true);
+
+        // Grow the segment if it is full
+        if (flightCount * RECORD_SIZE == records.byteSize()) {
+            MemorySegment larger = allocateRecords(flightCount * 2L);
+            larger.copyFrom(records);
+            records = larger;
+        }
+
+        // Write the new record
+        int record = flightCount++;
+        long base = record * RECORD_SIZE;
+        records.set(ValueLayout.JAVA_INT, base + SOURCE_OFFSET, sourceId);
+        records.set(ValueLayout.JAVA_INT, base + DESTINATION_OFFSET, destinationId);
+        records.set(ValueLayout.JAVA_INT, base + NEXT_OFFSET, NO_FLIGHT);
+        records.set(ValueLayout.JAVA_INT, base + DURATION_OFFSET, duration);
+        records.set(ValueLayout.JAVA_DOUBLE, base + COST_OFFSET, cost);
+
+        // Append the record to the source city's list, keeping the same order as AirlineGraph
+        if (firstFlight[sourceId] == NO_FLIGHT) {
+            firstFlight[sourceId] = record;
+        } else {
+            records.set(ValueLayout.JAVA_INT, lastFlight[sourceId] * RECORD_SIZE + NEXT_OFFSET, record);
+        }
+        lastFlight[sourceId] = record;
+        flightsChanged();
+    }
+
+    /**
+     * Gets the graph in the form used for routing, which is this graph itself since flights are already numbered
+     *
+     * @return This graph
+     */
+    @Override
+    public Adjacency getAdjacency() {
+        return this;
+    }
+
+    /**
+     * Gets all flights departing from a specific city
+     * The flights are lightweight views over the records, use firstFlightFrom/nextFlight to avoid creating them
+     *
+     * @param city The source city
+     * @return List of Flight objects representing all outgoing flights from the city
+     *         Returns an empty list if the city has no outgoing flights or doesn't exist
+     */
+    @Override
+    public List<Flight> getFlightsFrom(String city) {
+        List<Flight> flights = new ArrayList<>();
+        int id = cityId(city);
+        if (id == NO_CITY) return flights;
+        for (int record = firstFlight[id]; record != NO_FLIGHT; record = nextFlight(record)) {
+            flights.add(flightAt(record));
+        }
+        return flights;
+    }
+
+    /**
+     * Gets all cities in the network (both source and destination)
+     *
+     * @return Set of city names represented as strings
+     */
+    @Override
+    public Set<String> getCities() {
+        return new HashSet<>(cityNames);
+    }
+
+    // Record level access (AirlineGraph.Adjacency), used for routing without creating any Flight objects; the
+    // flight number is the record index
+
+    public int cityCount() { return cityNames.size(); }
+    public int flightCount() { return flightCount; }
+    public String cityName(int cityId) { return cityNames.get(cityId); }
+    // Returns NO_CITY if the city is not in the network
+    public int cityId(String city) { return cityId(city, false); }
+    public int firstFlightFrom(int cityId) { return firstFlight[cityId]; }
+    public int nextFlight(int record) { return records.get(ValueLayout.JAVA_INT, record * RECORD_SIZE + NEXT_OFFSET); }
+    public int sourceOf(int record) { return records.get(ValueLayout.JAVA_INT, record * RECORD_SIZE + SOURCE_OFFSET); }
+    public int destinationOf(int record) { return records.get(ValueLayout.JAVA_INT, record * RECORD_SIZE + DESTINATION_OFFSET); }
+    public double costOf(int record) { return records.get(ValueLayout.JAVA_DOUBLE, record * RECORD_SIZE + COST_OFFSET); }
+    public int durationOf(int record) { return records.get(ValueLayout.JAVA_INT, record * RECORD_SIZE + DURATION_OFFSET); }
+
+    /**
+     * Creates a Flight view of a record, the view reads everything from the record when asked
+     *
+     * @param record The index of the flight record
+     * @return A Flight backed by the record
+     */
+    public Flight flightAt(int record) {
+        return new FlightView(record);
+    }
+
+    /**
+     * Helper method for looking up (and optionally adding) a city id
+     */
+    private int cityId(String city, boolean create) {
+        Integer id = cityIds.get(city);
+        if (id != null) return id;
+        if (!create) return NO_CITY;
+
+        // New city: give it the next id and an empty list of flights
+        int newId = cityNames.size();
+        cityIds.put(city, newId);
+        cityNames.add(city);
+        if (newId == firstFlight.length) {
+            firstFlight = Arrays.copyOf(firstFlight, newId * 2);
+            lastFlight = Arrays.copyOf(lastFlight, newId * 2);
+        }
+        firstFlight[newId] = NO_FLIGHT;
+        lastFlight[newId] = NO_FLIGHT;
+        return newId;
+    }
+
+    /**
+     * Helper method for allocating room for a number of records
+     * Uses an automatic arena so a segment is freed once it has been replaced by a larger one
+     */
+    private static MemorySegment allocateRecords(long count) {
+        return Arena.ofAuto().allocate(FLIGHT_RECORD, count);
+    }
+
+    private static long offsetOf(String field) {
+        return FLIGHT_RECORD.byteOffset(MemoryLayout.PathElement.groupElement(field));
+    }
+
+    /**
+     * Helper class that presents a flight record as a Flight (flyweight)
+     * Only holds the record index, so creating one is cheap and different views of a record share bookings
+     */
+    private class FlightView extends Flight {
+        private final int record;
+
+        FlightView(int record) { this.record = record; }
+
+        @Override public String getSource() { return cityNames.get(sourceOf(record)); }
+        @Override public String getDestination() { return cityNames.get(destinationOf(record)); }
+        @Override public double getCost() { return costOf(record); }
+        @Override public int getDuration() { return durationOf(record); }
+
+        @Override
+        public void bookSeat(BookingRequest request) {
+            synchronized (waitingQueues) {
+                getWaitingQueue().add(request);
+            }
+        }
+
+        @Override
+        public PriorityQueue<BookingRequest> getWaitingQueue() {
+            synchronized (waitingQueues) {
+                // Defines a new Priority Queue that is ordered based on booking time the first time it is needed
+                return waitingQueues.computeIfAbsent(record,
+                        _ -> new PriorityQueue<>(Comparator.comparing(BookingRequest::getBookingTime)));
+            }
+        }
+
+        // Views are created on demand, so two views of the same record are the same flight
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof FlightView view && view.record == record && view.graph() == graph();
+        }
+
+        @Override
+        public int hashCode() { return record; }
+
+        private OffHeapAirlineGraph graph() { return OffHeapAirlineGraph.this; }
+    }
+}
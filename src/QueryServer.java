@@ -0,0 +1,254 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * QueryServer class for the Airline Reservation System
+ * Provides a headless, line based query mode so the system can be driven by other programs instead of the menu
+ * Requests can be read in bulk from a file/stdin or served over a local loopback socket
+ *
+ * Protocol (one request per line, fields separated by whitespace, one response line per request):
+ *   ADD source destination cost duration                   ->  OK | ERR message
+ *   ROUTE start end cost|duration [maxLegs [maxDuration]]  ->  OK total city city ... | NONE
+ *   BOOK customer                                          ->  OK bookingRef legs | ERR message
+ *   QUIT                                                   ->  closes the connection
+ * Names containing spaces are written in double quotes, e.g. ADD "New York" Boston 150 90, and are quoted the
+ * same way in ROUTE responses. BOOK takes the rest of the line as the customer name, e.g. BOOK John Smith
+ * Blank lines and lines starting with # are ignored
+ */
+public class QueryServer {
+    private final AirlineGraph graph; // Flight network shared by every connection
+    // Many connections may route at the same time, but adding a flight has to wait for routing to finish
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public QueryServer(AirlineGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Accepts connections on the loopback interface until the process is stopped
+     *
+     * @param port The local port to listen on
+     */
+    public void serve(int port) throws IOException {
+        // Only bind to the loopback address, the server is meant for other services on the same machine
+        ServerSocket server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        System.out.println("Listening on " + server.getLocalSocketAddress());
+        serve(server);
+    }
+
+    /**
+     * Accepts connections on an already bound socket until the socket is closed
+     * Each connection gets its own virtual thread and its own session (current route)
+     * Closing the socket also closes every connection that is still open, so this method returns without
+     * waiting for clients to disconnect
+     *
+     * @param server The socket to accept connections on, closed when this method returns
+     */
+    public void serve(ServerSocket server) throws IOException {
+        // Connections that are still open, so they can be closed when the server stops
+        Set<Socket> connections = ConcurrentHashMap.newKeySet();
+        try (server; ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketException e) {
+                    // Closing the socket is how the server is stopped, anything else is a real error
+                    if (!server.isClosed()) throw e;
+                    // Closing the connections ends their handlers, otherwise closing the executor would wait for them
+                    for (Socket connection : connections) {
+                        try {
+                            connection.close();
+                        } catch (IOException closeError) {
+                            System.out.println("Connection closed: " + closeError.getMessage());
+                        }
+                    }
+                    return;
+                }
+                connections.add(socket);
+                executor.submit(() -> {
+                    try {
+                        handleConnection(socket);
+                    } finally {
+                        connections.remove(socket);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Handles one socket connection, closing it once the client sends QUIT or disconnects
+     */
+    private void handleConnection(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+             Writer out = new OutputStreamWriter(socket.getOutputStream())) {
+            process(in, out);
+        } catch (IOException e) {
+            System.out.println("Connection closed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Processes every request from the reader and writes one response line per request
+     * Responses are pipelined: they are only flushed once no more requests are already waiting in the reader,
+     * so a client that sends many requests at once gets its answers back in one write
+     *
+     * @param in The source of requests (file, stdin or socket)
+     * @param out Where the responses are written
+     */
+    public void process(BufferedReader in, Writer out) throws IOException {
+        Session session = new Session(); // Each stream has its own current route, like a user of the menu
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            // Skip empty lines and comments
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            if (line.equalsIgnoreCase("QUIT")) break;
+
+            out.write(session.handle(line));
+            out.write('\n');
+
+            // Only flush when the client has nothing else queued up
+            if (!in.ready()) out.flush();
+        }
+        out.flush();
+    }
+
+    /**
+     * Helper class that holds the state of one client, the equivalent of Main's currentRoute
+     */
+    private class Session {
+        private Dijkstra.PathResult currentRoute; // Stores the route most recently found by this client
+
+        /**
+         * Runs a single request and builds the response line
+         */
+        String handle(String line) {
+            try {
+                String[] parts = splitFields(line);
+                switch (parts[0].toUpperCase()) {
+                    case "ADD":
+                        return add(parts);
+                    case "ROUTE":
+                        return route(parts);
+                    case "BOOK":
+                        return book(line);
+                    default:
+                        return "ERR Unknown command " + parts[0];
+                }
+            } catch (NumberFormatException e) {
+                return "ERR Invalid number " + e.getMessage();
+            } catch (IllegalArgumentException e) {
+                return "ERR " + e.getMessage();
+            }
+        }
+
+        private String add(String[] parts) {
+            if (parts.length != 5) return "ERR Usage: ADD source destination cost duration";
+            double cost = Double.parseDouble(parts[3]);
+            int duration = Integer.parseInt(parts[4]);
+            // Same validation as the menu, checked here so the client gets an error instead of a console message
+            // NaN fails every comparison, so the cost has to pass cost > 0 rather than fail cost <= 0
+            if (!(cost > 0) || Double.isInfinite(cost) || duration <= 0) return "ERR Invalid cost or duration";
+
+            lock.writeLock().lock();
+            try {
+                graph.addFlight(parts[1], parts[2], cost, duration);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return "OK";
+        }
+
+        private String route(String[] parts) {
+            if (parts.length < 4 || parts.length > 6) {
+                return "ERR Usage: ROUTE start end cost|duration [maxLegs [maxDuration]]";
+            }
+            String criteria = parts[3].toLowerCase();
+            if (!criteria.equals("cost") && !criteria.equals("duration")) {
+                return "ERR Invalid criteria, use cost or duration";
+            }
+            // Optional limits on the number of flights and the total duration
+            int maxLegs = parts.length > 4 ? Integer.parseInt(parts[4]) : 0;
+            int maxDuration = parts.length > 5 ? Integer.parseInt(parts[5]) : ConstrainedRouting.NO_DURATION_LIMIT;
+
+            lock.readLock().lock();
+            try {
+                if (parts.length > 4) {
+                    currentRoute = ConstrainedRouting.findShortestPath(graph, parts[1], parts[2], criteria,
+                            maxLegs, maxDuration);
+                } else {
+                    currentRoute = Dijkstra.findShortestPath(graph, parts[1], parts[2], criteria);
+                }
+
+                if (currentRoute.flights == null) return "NONE";
+                // Response lists the total followed by every city along the route. It is built before the lock is
+                // released because off-heap flights read their cities from the graph, which ADD may be changing
+                StringBuilder response = new StringBuilder("OK ").append(currentRoute.total);
+                response.append(' ').append(quote(currentRoute.flights.getFirst().getSource()));
+                for (Flight flight : currentRoute.flights) {
+                    response.append(' ').append(quote(flight.getDestination()));
+                }
+                return response.toString();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private String book(String line) {
+            // Everything after the command is the customer name, like the menu reading the whole line
+            String customer = line.substring("BOOK".length()).trim();
+            if (customer.isEmpty()) return "ERR Usage: BOOK customer";
+            if (currentRoute == null || currentRoute.flights == null) return "ERR No route selected";
+
+            // Generate a booking reference the same way the menu does
+            String bookingRef = "BOOKING-" + System.currentTimeMillis();
+            for (Flight flight : currentRoute.flights) {
+                flight.bookSeat(new BookingRequest(customer, System.currentTimeMillis()));
+            }
+            return "OK " + bookingRef + " " + currentRoute.flights.size();
+        }
+    }
+
+    /**
+     * Helper method that splits a request into fields on whitespace, keeping double quoted fields together
+     *
+     * @param line The request line
+     * @return The fields of the request, without the quotes
+     */
+    static String[] splitFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false; // Inside a pair of double quotes
+        boolean inField = false; // A field has started (an empty quoted field still counts)
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                inField = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                // End of a field, several spaces in a row only separate once
+                if (inField) fields.add(field.toString());
+                field.setLength(0);
+                inField = false;
+            } else {
+                field.append(c);
+                inField = true;
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Missing closing quote");
+        if (inField) fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Helper method that quotes a city name containing whitespace so it reads back as one field
+     */
+    private static String quote(String name) {
+        return name.chars().anyMatch(Character::isWhitespace) ? '"' + name + '"' : name;
+    }
+}
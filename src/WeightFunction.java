@@ -0,0 +1,52 @@
+/**
+ * WeightFunction interface for the Airline Reservation System
+ * Decides the weight of a flight for routing from its cost and duration
+ * The graph turns a weight function into an array with one weight per flight the first time it is used,
+ * so routing only reads weights from that array instead of calling the function for every flight
+ * Weights must be positive and finite, the same as cost and duration; the graph rejects any other weight
+ */
+@FunctionalInterface
+public interface WeightFunction {
+    // Weights used by the cost and duration criteria, kept as constants so their weight arrays are reused
+    WeightFunction COST = (cost, duration) -> cost;
+    WeightFunction DURATION = (cost, duration) -> duration;
+
+    /**
+     * Calculates the weight of a single flight
+     *
+     * @param cost The flight cost in dollars
+     * @param duration The flight duration in minutes
+     * @return The weight of the flight
+     */
+    double weight(double cost, int duration);
+
+    /**
+     * Gets the weight function for a criteria used by the menu (cost/duration)
+     *
+     * @param criteria The criteria selected for weights, anything other than cost means duration
+     * @return COST or DURATION
+     */
+    static WeightFunction of(String criteria) {
+        return criteria.equals("cost") ? COST : DURATION;
+    }
+
+    /**
+     * Creates a weight that blends cost and duration and adds a fixed penalty for every flight taken
+     * For example linear(1.0, 0.5, 25.0) values every minute at 50 cents and every connection at $25
+     *
+     * @param costFactor The weight of one dollar
+     * @param durationFactor The weight of one minute
+     * @param perLegPenalty The weight added for every flight on the route
+     * @return The combined weight function
+     */
+    static WeightFunction linear(double costFactor, double durationFactor, double perLegPenalty) {
+        // Negative factors could make a flight weigh nothing or less, which Dijkstra cannot handle
+        if (costFactor < 0 || durationFactor < 0 || perLegPenalty < 0) {
+            throw new IllegalArgumentException("Weight factors cannot be negative");
+        }
+        if (costFactor == 0 && durationFactor == 0 && perLegPenalty == 0) {
+            throw new IllegalArgumentException("At least one weight factor must be positive");
+        }
+        return (cost, duration) -> costFactor * cost + durationFactor * duration + perLegPenalty;
+    }
+}
@@ -1,5 +1,7 @@
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import java.io.*;
+import java.net.*;
 import java.util.*;
 
 /**
@@ -320,4 +322,378 @@ public class DijkstraTest {
         // Verify booking time
         assertEquals(1000, booking.getBookingTime());
     }
+
+    /**
+     * Test case for the headless query mode
+     * Verifies that a batch of requests adds flights, finds a route and books it, one response per request
+     */
+    @Test
+    void testQueryServerBatch() throws IOException {
+        AirlineGraph graph = new AirlineGraph();
+        QueryServer server = new QueryServer(graph);
+
+        // Pipelined batch of requests, including a comment and an invalid flight
+        String requests = """
+                # small network
+                ADD A B 150 5
+                ADD A C 50 10
+                ADD C B 50 2
+                ADD A D -1 3
+                ROUTE A B cost
+                BOOK Customer
+                ROUTE A D cost
+                """;
+        StringWriter out = new StringWriter();
+        server.process(new BufferedReader(new StringReader(requests)), out);
+        String[] responses = out.toString().split("\n");
+
+        // Verify one response per request
+        assertEquals(7, responses.length);
+        assertEquals("OK", responses[0]);
+        // Verify invalid flight is rejected
+        assertTrue(responses[3].startsWith("ERR"));
+        // Verify cheapest route A->C->B with total cost 100
+        assertEquals("OK 100.0 A C B", responses[4]);
+        // Verify booking covers both legs of the route
+        assertTrue(responses[5].matches("OK BOOKING-\\d+ 2"));
+        assertEquals("Customer", graph.getFlightsFrom("C").getFirst().getWaitingQueue().peek().getCustomerId());
+        // Verify no route to a city that was never added
+        assertEquals("NONE", responses[6]);
+    }
+
+    /**
+     * Test case for booking in the headless query mode without a route
+     * Verifies that each stream keeps its own current route
+     */
+    @Test
+    void testQueryServerBookWithoutRoute() throws IOException {
+        AirlineGraph graph = new AirlineGraph();
+        graph.addFlight("A", "B", 100.0, 2);
+        QueryServer server = new QueryServer(graph);
+
+        // First stream selects a route
+        StringWriter first = new StringWriter();
+        server.process(new BufferedReader(new StringReader("ROUTE A B duration\n")), first);
+        assertEquals("OK 2.0 A B\n", first.toString());
+
+        // Second stream has no route selected yet
+        StringWriter second = new StringWriter();
+        server.process(new BufferedReader(new StringReader("BOOK Customer\nQUIT\nROUTE A B cost\n")), second);
+        assertEquals("ERR No route selected\n", second.toString());
+    }
+
+    /**
+     * Test case for the loopback server
+     * Verifies that two clients are served at the same time, each with its own current route,
+     * and that QUIT closes the connection
+     */
+    @Test
+    void testQueryServerLoopback() throws Exception {
+        AirlineGraph graph = new AirlineGraph();
+        graph.addFlight("A", "B", 100.0, 2);
+        QueryServer server = new QueryServer(graph);
+
+        // Port 0 picks a free port
+        ServerSocket serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.serve(serverSocket);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        serverThread.start();
+
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+             Socket second = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort())) {
+            // Fail instead of hanging if a response never arrives
+            first.setSoTimeout(5000);
+            second.setSoTimeout(5000);
+            BufferedReader firstIn = new BufferedReader(new InputStreamReader(first.getInputStream()));
+            PrintWriter firstOut = new PrintWriter(first.getOutputStream(), true);
+            BufferedReader secondIn = new BufferedReader(new InputStreamReader(second.getInputStream()));
+            PrintWriter secondOut = new PrintWriter(second.getOutputStream(), true);
+
+            // First client selects a route and stays connected
+            firstOut.println("ROUTE A B cost");
+            assertEquals("OK 100.0 A B", firstIn.readLine());
+
+            // Second client is answered while the first is still open, and has no route of its own
+            secondOut.println("BOOK Customer");
+            assertEquals("ERR No route selected", secondIn.readLine());
+
+            // First client books its route
+            firstOut.println("BOOK Customer");
+            assertTrue(firstIn.readLine().startsWith("OK BOOKING-"));
+
+            // QUIT closes the connection, so the client reads the end of the stream
+            secondOut.println("QUIT");
+            assertNull(secondIn.readLine());
+
+            // Closing the server socket stops the server even though the first client is still connected
+            serverSocket.close();
+            serverThread.join(5000);
+            assertFalse(serverThread.isAlive());
+            // The server closed the first client's connection
+            assertNull(firstIn.readLine());
+        } finally {
+            serverSocket.close();
+            serverThread.join(5000);
+        }
+        assertEquals("Customer", graph.getFlightsFrom("A").getFirst().getWaitingQueue().peek().getCustomerId());
+    }
+
+    /**
+     * Test case for names with spaces and invalid numbers in the headless query mode
+     * Verifies that quoted city names and multi-word customer names work, and that NaN/Infinity are rejected
+     */
+    @Test
+    void testQueryServerNamesAndInvalidNumbers() throws IOException {
+        AirlineGraph graph = new AirlineGraph();
+        QueryServer server = new QueryServer(graph);
+
+        String requests = """
+                ADD "New York" Boston 10 5
+                ADD X Y NaN 5
+                ADD X Y Infinity 5
+                ADD X Y 10 abc
+                ADD "Los Angeles Boston 10 5
+                ROUTE "New York" Boston cost
+                BOOK John Smith
+                """;
+        StringWriter out = new StringWriter();
+        server.process(new BufferedReader(new StringReader(requests)), out);
+        String[] responses = out.toString().split("\n");
+
+        // Verify the quoted city is one field
+        assertEquals("OK", responses[0]);
+        // Verify values that are not finite positive numbers are rejected
+        assertEquals("ERR Invalid cost or duration", responses[1]);
+        assertEquals("ERR Invalid cost or duration", responses[2]);
+        assertTrue(responses[3].startsWith("ERR Invalid number"));
+        assertEquals("ERR Missing closing quote", responses[4]);
+        assertFalse(graph.getCities().contains("X"));
+        // Verify the route response quotes the city name
+        assertEquals("OK 10.0 \"New York\" Boston", responses[5]);
+        // Verify the whole rest of the line is the customer name
+        assertTrue(responses[6].startsWith("OK BOOKING-"));
+        assertEquals("John Smith", graph.getFlightsFrom("New York").getFirst().getWaitingQueue().peek().getCustomerId());
+    }
+
+    /**
+     * Test case for routing and adding flights at the same time on the off-heap graph
+     * Verifies that route responses stay correct while another stream keeps adding cities and flights
+     */
+    @Test
+    void testQueryServerConcurrentOffHeap() throws Exception {
+        OffHeapAirlineGraph graph = new OffHeapAirlineGraph();
+        graph.addFlight("A", "B", 10.0, 1);
+        QueryServer server = new QueryServer(graph);
+
+        // Enough new cities and flights to grow the city list and the record segment many times
+        StringBuilder adds = new StringBuilder();
+        StringBuilder routes = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            adds.append("ADD City").append(i).append(" City").append(i + 1).append(" 1 1\n");
+            routes.append("ROUTE A B cost\n");
+        }
+
+        // Adding runs on its own thread while routing runs on this one
+        StringWriter addOut = new StringWriter();
+        Exception[] addError = new Exception[1];
+        Thread adder = new Thread(() -> {
+            try {
+                server.process(new BufferedReader(new StringReader(adds.toString())), addOut);
+            } catch (Exception e) {
+                addError[0] = e;
+            }
+        });
+        adder.start();
+        StringWriter routeOut = new StringWriter();
+        server.process(new BufferedReader(new StringReader(routes.toString())), routeOut);
+        adder.join();
+
+        // Verify every request was answered correctly
+        assertNull(addError[0]);
+        for (String response : addOut.toString().split("\n")) {
+            assertEquals("OK", response);
+        }
+        String[] routeResponses = routeOut.toString().split("\n");
+        assertEquals(5000, routeResponses.length);
+        for (String response : routeResponses) {
+            assertEquals("OK 10.0 A B", response);
+        }
+        assertEquals(5003, graph.getCities().size());
+    }
+
+    /**
+     * Test case for the off-heap graph
+     * Verifies that routing and booking behave the same as with the regular AirlineGraph
+     */
+    @Test
+    void testOffHeapGraph() {
+        OffHeapAirlineGraph graph = new OffHeapAirlineGraph();
+        // Enough flights to make the record segment grow a few times
+        for (int i = 1; i <= 100; i++) {
+            graph.addFlight("City" + i, "City" + (i + 1), 10.0, 1);
+        }
+        // Direct flight that is faster but more expensive than the chain
+        graph.addFlight("City1", "City101", 5000.0, 2);
+        // Invalid flight is not stored
+        graph.addFlight("City1", "City200", -1.0, 1);
+
+        // Verify the network contents
+        assertEquals(101, graph.getCities().size());
+        assertEquals(2, graph.getFlightsFrom("City1").size());
+        assertTrue(graph.getFlightsFrom("Nowhere").isEmpty());
+
+        // Test path optimization by cost: the chain of 100 flights
+        Dijkstra.PathResult resultCost = Dijkstra.findShortestPath(graph, "City1", "City101", "cost");
+        assertEquals(100, resultCost.flights.size());
+        assertEquals("City1", resultCost.flights.getFirst().getSource());
+        assertEquals("City101", resultCost.flights.getLast().getDestination());
+        assertEquals(1000.0, resultCost.total);
+
+        // Test path optimization by duration: the direct flight
+        Dijkstra.PathResult resultDuration = Dijkstra.findShortestPath(graph, "City1", "City101", "duration");
+        assertEquals(1, resultDuration.flights.size());
+        assertEquals(5000.0, resultDuration.flights.getFirst().getCost());
+        assertEquals(2.0, resultDuration.total);
+
+        // Verify leg-limited routing reads the records too: the chain needs 100 flights
+        assertEquals(1000.0, ConstrainedRouting.findShortestPath(graph, "City1", "City101", "cost", 100).total);
+        assertEquals(5000.0, ConstrainedRouting.findShortestPath(graph, "City1", "City101", "cost", 99).total);
+        // Verify the off-heap graph is routed over directly, not copied into arrays
+        assertSame(graph, graph.getAdjacency());
+
+        // Verify no path to an unknown city or back to the start
+        assertNull(Dijkstra.findShortestPath(graph, "City1", "City200", "cost").flights);
+        assertNull(Dijkstra.findShortestPath(graph, "City1", "City1", "cost").flights);
+
+        // Verify bookings made through one view of a flight are seen by another view of the same flight
+        resultDuration.flights.getFirst().bookSeat(new BookingRequest("Great Customer", 1000));
+        Flight sameFlight = graph.getFlightsFrom("City1").getLast();
+        assertEquals(resultDuration.flights.getFirst(), sameFlight);
+        assertEquals("Great Customer", sameFlight.getWaitingQueue().peek().getCustomerId());
+    }
+
+    /**
+     * Test case for routing with a maximum number of flights and a maximum total duration
+     * Verifies that the best route within the limits is chosen instead of the overall cheapest one
+     */
+    @Test
+    void testConstrainedRouting() {
+        AirlineGraph graph = new AirlineGraph();
+        // Direct flight: expensive but fast
+        graph.addFlight("A", "B", 100.0, 1);
+        // Two legs via E: cheaper, still fairly fast
+        graph.addFlight("A", "E", 40.0, 2);
+        graph.addFlight("E", "B", 40.0, 2);
+        // Three legs via C and D: cheapest but slow
+        graph.addFlight("A", "C", 10.0, 5);
+        graph.addFlight("C", "D", 10.0, 5);
+        graph.addFlight("D", "B", 10.0, 5);
+
+        // Verify unconstrained cost matches Dijkstra (A->C->D->B)
+        Dijkstra.PathResult unlimited = ConstrainedRouting.findShortestPath(graph, "A", "B", "cost", 10);
+        assertEquals(3, unlimited.flights.size());
+        assertEquals(Dijkstra.findShortestPath(graph, "A", "B", "cost").total, unlimited.total);
+
+        // Verify at most two flights picks A->E->B
+        Dijkstra.PathResult twoLegs = ConstrainedRouting.findShortestPath(graph, "A", "B", "cost", 2);
+        assertEquals(2, twoLegs.flights.size());
+        assertEquals("E", twoLegs.flights.get(0).getDestination());
+        assertEquals(80.0, twoLegs.total);
+
+        // Verify one flight picks the direct flight
+        assertEquals(100.0, ConstrainedRouting.findShortestPath(graph, "A", "B", "cost", 1).total);
+
+        // Verify the duration limit rules out the slower routes
+        Dijkstra.PathResult fast = ConstrainedRouting.findShortestPath(graph, "A", "B", "cost", 3, 3);
+        assertEquals(1, fast.flights.size());
+        assertEquals(100.0, fast.total);
+
+        // Verify no route when the limits cannot be met
+        assertNull(ConstrainedRouting.findShortestPath(graph, "A", "D", "cost", 1).flights);
+        assertNull(ConstrainedRouting.findShortestPath(graph, "A", "B", "cost", 3, 0).flights);
+        assertNull(ConstrainedRouting.findShortestPath(graph, "A", "A", "cost", 3).flights);
+    }
+
+    /**
+     * Test case for a city that is reached more cheaply with more flights
+     * Verifies that the route with fewer flights is still used when only it fits the limit
+     */
+    @Test
+    void testConstrainedRoutingKeepsFewerLegs() {
+        AirlineGraph graph = new AirlineGraph();
+        // X can be reached with one expensive flight or two cheap ones
+        graph.addFlight("A", "X", 50.0, 1);
+        graph.addFlight("A", "Y", 1.0, 1);
+        graph.addFlight("Y", "X", 1.0, 1);
+        graph.addFlight("X", "Z", 1.0, 1);
+
+        // Only the single flight to X leaves room for the flight to Z
+        Dijkstra.PathResult result = ConstrainedRouting.findShortestPath(graph, "A", "Z", "cost", 2);
+        assertNotNull(result.flights);
+        assertEquals(2, result.flights.size());
+        assertEquals(51.0, result.total);
+
+        // With one more flight allowed the cheaper way to X is used
+        assertEquals(3.0, ConstrainedRouting.findShortestPath(graph, "A", "Z", "cost", 3).total);
+    }
+
+    /**
+     * Test case for blended weight functions
+     * Verifies that cost, duration and a per-flight penalty are combined, and that adding a flight
+     * updates the weights used for routing
+     */
+    @Test
+    void testWeightFunctions() {
+        AirlineGraph graph = new AirlineGraph();
+        // Direct flight: expensive but fast
+        graph.addFlight("A", "B", 100.0, 1);
+        // Three legs via C and D: cheapest but slow
+        graph.addFlight("A", "C", 10.0, 5);
+        graph.addFlight("C", "D", 10.0, 5);
+        graph.addFlight("D", "B", 10.0, 5);
+
+        // Verify the named weight functions match the criteria strings
+        assertEquals(30.0, Dijkstra.findShortestPath(graph, "A", "B", WeightFunction.COST).total);
+        assertEquals(1.0, Dijkstra.findShortestPath(graph, "A", "B", WeightFunction.DURATION).total);
+
+        // Cost plus $10 per minute: direct 110, via C and D 180
+        Dijkstra.PathResult blended = Dijkstra.findShortestPath(graph, "A", "B", WeightFunction.linear(1.0, 10.0, 0.0));
+        assertEquals(1, blended.flights.size());
+        assertEquals(110.0, blended.total);
+
+        // Cost plus $30 per flight: direct 130, via C and D 120
+        Dijkstra.PathResult penalised = Dijkstra.findShortestPath(graph, "A", "B", WeightFunction.linear(1.0, 0.0, 30.0));
+        assertEquals(3, penalised.flights.size());
+        assertEquals(120.0, penalised.total);
+
+        // Custom weight function, only counting duration over 2 minutes
+        WeightFunction longFlights = (cost, duration) -> Math.max(duration - 2, 0) + 0.5;
+        assertEquals(0.5, Dijkstra.findShortestPath(graph, "A", "B", longFlights).total);
+
+        // Verify a new flight is used by a weight function that was used before
+        graph.addFlight("A", "B", 5.0, 1);
+        assertEquals(5.0, Dijkstra.findShortestPath(graph, "A", "B", WeightFunction.COST).total);
+
+        // Verify only the named weights are kept, blended weights are calculated again for every query
+        assertSame(graph.getWeights(WeightFunction.COST), graph.getWeights(WeightFunction.COST));
+        WeightFunction blend = WeightFunction.linear(1.0, 0.5, 10.0);
+        assertNotSame(graph.getWeights(blend), graph.getWeights(blend));
+
+        // Verify invalid factors are rejected
+        assertThrows(IllegalArgumentException.class, () -> WeightFunction.linear(-1.0, 0.0, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> WeightFunction.linear(0.0, 0.0, 0.0));
+
+        // Verify custom functions that give a flight no weight, a negative weight or NaN are rejected
+        assertThrows(IllegalArgumentException.class,
+                () -> Dijkstra.findShortestPath(graph, "A", "B", (cost, duration) -> 0.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> Dijkstra.findShortestPath(graph, "A", "B", (cost, duration) -> cost - 100.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> Dijkstra.findShortestPath(graph, "A", "B", (cost, duration) -> Double.NaN));
+    }
 }
\ No newline at end of file